@@ -16,4 +16,12 @@ public abstract class YamlBiMapParser<YamlType, Key, Value>
   public YamlBiMapParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlBiMapParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlBiMapParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
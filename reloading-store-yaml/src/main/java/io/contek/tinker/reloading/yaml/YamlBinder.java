@@ -0,0 +1,883 @@
+package io.contek.tinker.reloading.yaml;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Binds composed Yaml nodes directly onto typed objects. The accessors of each type are looked up
+ * once and cached as {@link MethodHandle}s, so binding does not use reflection.
+ *
+ * <p>Compiled types are classes with a no-arg constructor and public fields or setters, records,
+ * enums, primitives and their wrappers, {@link String}, {@link BigInteger}, {@link BigDecimal},
+ * arrays, {@link Object}, and {@link Collection}s and {@link Map}s which are either concrete with a
+ * no-arg constructor or implemented by {@link ArrayList}, {@link LinkedHashSet}, {@link TreeSet},
+ * {@link ArrayDeque}, {@link LinkedHashMap} or {@link TreeMap}. Scalars are resolved the same way
+ * as {@link SafeConstructor} does. Integral types and {@link Character} reject values which do not
+ * fit exactly. A property with several setters binds through the one matching the type of its
+ * getter, and is rejected if there is no such setter.
+ *
+ * <p>Everything else is constructed by the {@link Yaml} given to {@link #bind(Node, Class, Yaml)}
+ * through {@link Yaml#loadAs(String, Class)}, which is much slower but behaves the same. This
+ * covers nodes with custom tags, scalars bound onto other classes such as {@link java.util.Date}
+ * or {@link java.net.URI}, types without a no-arg constructor, and beans with properties the
+ * compiled binding does not know. Settings of the {@link Yaml}'s constructor, such as {@link
+ * org.yaml.snakeyaml.TypeDescription}s and {@link org.yaml.snakeyaml.introspector.PropertyUtils},
+ * therefore only apply to those nodes.
+ */
+@ThreadSafe
+public final class YamlBinder {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final List<Class<?>> DEFAULT_IMPLEMENTATIONS =
+      List.of(
+          ArrayList.class,
+          LinkedHashSet.class,
+          TreeSet.class,
+          ArrayDeque.class,
+          LinkedHashMap.class,
+          TreeMap.class);
+
+  private static final ImmutableSet<Tag> STANDARD_TAGS =
+      ImmutableSet.of(
+          Tag.NULL,
+          Tag.BOOL,
+          Tag.INT,
+          Tag.FLOAT,
+          Tag.STR,
+          Tag.TIMESTAMP,
+          Tag.BINARY,
+          Tag.SEQ,
+          Tag.MAP,
+          Tag.SET,
+          Tag.OMAP,
+          Tag.PAIRS);
+
+  private final Map<Class<?>, IBinding> rootBindings = new ConcurrentHashMap<>();
+  private final Map<Class<?>, IBinding> objectBindings = new ConcurrentHashMap<>();
+
+  /**
+   * Binds the given node onto the given type, constructing nodes which cannot be bound directly
+   * with a default {@link Yaml}.
+   *
+   * @param node the composed node.
+   * @param type the target type.
+   * @return the bound object. {@code null} if the node is null.
+   * @throws YAMLException if the node does not match the type.
+   */
+  @Nullable
+  public <T> T bind(Node node, Class<T> type) throws YAMLException {
+    return bind(node, type, null);
+  }
+
+  /**
+   * Binds the given node onto the given type.
+   *
+   * @param node the composed node.
+   * @param type the target type.
+   * @param yaml the instance to construct nodes which cannot be bound directly. It must not be used
+   *     by other threads during this call. A default instance is created if {@code null}.
+   * @return the bound object. {@code null} if the node is null.
+   * @throws YAMLException if the node does not match the type.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public <T> T bind(Node node, Class<T> type, @Nullable Yaml yaml) throws YAMLException {
+    return (T) rootBindings.computeIfAbsent(type, this::compile).bind(node, new Context(yaml));
+  }
+
+  private IBinding compile(Type type) {
+    IBinding binding = compileType(type);
+    Class<?> cls = Primitives.wrap(erase(type));
+    return (node, context) ->
+        STANDARD_TAGS.contains(node.getTag())
+            ? binding.bind(node, context)
+            : context.fallback(node, cls);
+  }
+
+  private IBinding compileType(Type type) {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      Type[] arguments = parameterized.getActualTypeArguments();
+      Class<?> raw = (Class<?>) parameterized.getRawType();
+      if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class) {
+        return compileCollection(raw, arguments[0]);
+      }
+      if (Map.class.isAssignableFrom(raw)) {
+        return compileMap(raw, arguments[0], arguments[1]);
+      }
+      return compileType(raw);
+    }
+    if (type instanceof GenericArrayType) {
+      Type component = ((GenericArrayType) type).getGenericComponentType();
+      return compileArray(Array.newInstance(erase(component), 0).getClass(), component);
+    }
+    if (type instanceof WildcardType) {
+      return compileType(((WildcardType) type).getUpperBounds()[0]);
+    }
+    if (!(type instanceof Class)) {
+      return compileType(Object.class);
+    }
+
+    Class<?> cls = (Class<?>) type;
+    if (cls == Object.class) {
+      return (node, context) -> context.construct(node);
+    }
+    if (cls == String.class) {
+      return (node, context) -> scalar(node, String.class);
+    }
+    if (cls == Boolean.class || cls == boolean.class) {
+      return new ScalarBinding(cls, value -> (Boolean) value);
+    }
+    if (cls == Integer.class || cls == int.class) {
+      return new ScalarBinding(cls, value -> toBigInteger(value).intValueExact());
+    }
+    if (cls == Long.class || cls == long.class) {
+      return new ScalarBinding(cls, value -> toBigInteger(value).longValueExact());
+    }
+    if (cls == Double.class || cls == double.class) {
+      return new ScalarBinding(cls, value -> toNumber(value).doubleValue());
+    }
+    if (cls == Float.class || cls == float.class) {
+      return new ScalarBinding(cls, value -> toNumber(value).floatValue());
+    }
+    if (cls == Short.class || cls == short.class) {
+      return new ScalarBinding(cls, value -> toBigInteger(value).shortValueExact());
+    }
+    if (cls == Byte.class || cls == byte.class) {
+      return new ScalarBinding(cls, value -> toBigInteger(value).byteValueExact());
+    }
+    if (cls == Character.class || cls == char.class) {
+      return new ScalarBinding(cls, YamlBinder::toCharacter);
+    }
+    if (cls == BigInteger.class) {
+      return new ScalarBinding(cls, YamlBinder::toBigInteger);
+    }
+    if (cls == BigDecimal.class) {
+      return new ScalarBinding(cls, value -> new BigDecimal(value.toString()));
+    }
+    if (cls.isEnum()) {
+      return (node, context) -> {
+        String name = scalar(node, cls);
+        return name == null ? null : toEnum(cls, name);
+      };
+    }
+    if (Collection.class.isAssignableFrom(cls) || cls == Iterable.class) {
+      return compileCollection(cls, Object.class);
+    }
+    if (Map.class.isAssignableFrom(cls)) {
+      return compileMap(cls, Object.class, Object.class);
+    }
+    if (cls.isArray()) {
+      return compileArray(cls, cls.getComponentType());
+    }
+    if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
+      return fallback(cls);
+    }
+    return new ObjectBinding(cls);
+  }
+
+  private IBinding compileCollection(Class<?> type, Type element) {
+    MethodHandle creator = creator(type);
+    if (creator == null) {
+      return fallback(type);
+    }
+    return new CollectionBinding(type, creator, compile(element));
+  }
+
+  private IBinding compileMap(Class<?> type, Type key, Type value) {
+    MethodHandle creator = creator(type);
+    if (creator == null) {
+      return fallback(type);
+    }
+    return new MapBinding(type, creator, compile(key), compile(value));
+  }
+
+  private IBinding compileArray(Class<?> type, Type component) {
+    MethodHandle creator =
+        MethodHandles.arrayConstructor(type)
+            .asType(MethodType.methodType(Object.class, int.class));
+    MethodHandle setter =
+        MethodHandles.arrayElementSetter(type)
+            .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+    return new ArrayBinding(type, creator, setter, compile(component));
+  }
+
+  /**
+   * Returns the no-arg constructor of the given container type or its default implementation.
+   * {@code null} if there is none.
+   */
+  @Nullable
+  private static MethodHandle creator(Class<?> type) {
+    Class<?> implementation = null;
+    if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+      implementation = type;
+    } else {
+      for (Class<?> candidate : DEFAULT_IMPLEMENTATIONS) {
+        if (type.isAssignableFrom(candidate)) {
+          implementation = candidate;
+          break;
+        }
+      }
+    }
+    if (implementation == null) {
+      return null;
+    }
+    try {
+      Constructor<?> constructor = implementation.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static IBinding fallback(Class<?> type) {
+    Class<?> wrapped = Primitives.wrap(type);
+    return (node, context) -> context.fallback(node, wrapped);
+  }
+
+  private static Class<?> erase(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    }
+    if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    }
+    if (type instanceof GenericArrayType) {
+      Type component = ((GenericArrayType) type).getGenericComponentType();
+      return Array.newInstance(erase(component), 0).getClass();
+    }
+    return Object.class;
+  }
+
+  private IBinding compileObject(Class<?> cls) {
+    if (!cls.isRecord() && !hasNoArgConstructor(cls)) {
+      return fallback(cls);
+    }
+    try {
+      return cls.isRecord() ? compileRecord(cls) : compileBean(cls);
+    } catch (YAMLException e) {
+      throw e;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new YAMLException("Cannot compile binding of " + cls.getName(), e);
+    }
+  }
+
+  private IBinding compileBean(Class<?> cls) throws ReflectiveOperationException {
+    Constructor<?> constructor = cls.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    MethodHandle creator =
+        LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+
+    MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+    Map<String, Property> properties = new HashMap<>();
+    for (Field field : cls.getFields()) {
+      int modifiers = field.getModifiers();
+      if (Modifier.isStatic(modifiers)
+          || Modifier.isFinal(modifiers)
+          || Modifier.isTransient(modifiers)) {
+        continue;
+      }
+      field.setAccessible(true);
+      properties.put(
+          field.getName(),
+          new Property(
+              LOOKUP.unreflectSetter(field).asType(setterType), compile(field.getGenericType())));
+    }
+    Map<String, List<Method>> setters = new LinkedHashMap<>();
+    for (Method method : cls.getMethods()) {
+      String name = method.getName();
+      if (Modifier.isStatic(method.getModifiers())
+          || method.isBridge()
+          || method.isSynthetic()
+          || method.getParameterCount() != 1
+          || name.length() <= 3
+          || !name.startsWith("set")) {
+        continue;
+      }
+      setters.computeIfAbsent(name.substring(3), k -> new ArrayList<>()).add(method);
+    }
+    for (Map.Entry<String, List<Method>> entry : setters.entrySet()) {
+      Method method = resolveSetter(cls, entry.getKey(), entry.getValue());
+      method.setAccessible(true);
+      properties.put(
+          decapitalize(entry.getKey()),
+          new Property(
+              LOOKUP.unreflect(method).asType(setterType),
+              compile(method.getGenericParameterTypes()[0])));
+    }
+    return new BeanBinding(cls, creator, ImmutableMap.copyOf(properties));
+  }
+
+  /** Returns the only setter of the given property, or the one matching the type of its getter. */
+  private static Method resolveSetter(Class<?> cls, String property, List<Method> setters) {
+    if (setters.size() == 1) {
+      return setters.get(0);
+    }
+    Class<?> type = getterType(cls, property);
+    for (Method setter : setters) {
+      if (setter.getParameterTypes()[0] == type) {
+        return setter;
+      }
+    }
+    throw new YAMLException(
+        "Ambiguous setters of property '" + property + "' on " + cls.getName() + ": " + setters);
+  }
+
+  @Nullable
+  private static Class<?> getterType(Class<?> cls, String property) {
+    for (String prefix : List.of("get", "is")) {
+      try {
+        Method getter = cls.getMethod(prefix + property);
+        if (!Modifier.isStatic(getter.getModifiers()) && getter.getReturnType() != void.class) {
+          return getter.getReturnType();
+        }
+      } catch (NoSuchMethodException ignored) {
+        // Try the next prefix.
+      }
+    }
+    return null;
+  }
+
+  private static boolean hasNoArgConstructor(Class<?> cls) {
+    try {
+      cls.getDeclaredConstructor();
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private IBinding compileRecord(Class<?> cls) throws ReflectiveOperationException {
+    RecordComponent[] components = cls.getRecordComponents();
+    Class<?>[] types = new Class<?>[components.length];
+    Object[] defaults = new Object[components.length];
+    ImmutableMap.Builder<String, Integer> indices = ImmutableMap.builder();
+    IBinding[] bindings = new IBinding[components.length];
+    for (int i = 0; i < components.length; i++) {
+      RecordComponent component = components[i];
+      types[i] = component.getType();
+      defaults[i] = types[i].isPrimitive() ? Array.get(Array.newInstance(types[i], 1), 0) : null;
+      indices.put(component.getName(), i);
+      bindings[i] = compile(component.getGenericType());
+    }
+    Constructor<?> constructor = cls.getDeclaredConstructor(types);
+    constructor.setAccessible(true);
+    MethodHandle creator =
+        LOOKUP
+            .unreflectConstructor(constructor)
+            .asSpreader(Object[].class, components.length)
+            .asType(MethodType.methodType(Object.class, Object[].class));
+    return new RecordBinding(cls, creator, indices.buildOrThrow(), bindings, defaults);
+  }
+
+  private static boolean isNull(Node node) {
+    return node instanceof ScalarNode && Tag.NULL.equals(node.getTag());
+  }
+
+  @Nullable
+  private static String scalar(Node node, Class<?> type) {
+    if (isNull(node)) {
+      return null;
+    }
+    if (!(node instanceof ScalarNode)) {
+      throw mismatch(node, type);
+    }
+    return ((ScalarNode) node).getValue();
+  }
+
+  private static BigInteger toBigInteger(Object value) {
+    if (value instanceof BigInteger) {
+      return (BigInteger) value;
+    }
+    if (value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte) {
+      return BigInteger.valueOf(((Number) value).longValue());
+    }
+    if (value instanceof String) {
+      return new BigInteger((String) value);
+    }
+    throw new YAMLException("Not an integer: " + value);
+  }
+
+  private static Character toCharacter(Object value) {
+    String string = value.toString();
+    if (string.length() != 1) {
+      throw new YAMLException("Not a single character: " + string);
+    }
+    return string.charAt(0);
+  }
+
+  private static Number toNumber(Object value) {
+    if (value instanceof Number) {
+      return (Number) value;
+    }
+    return new BigDecimal(value.toString());
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object toEnum(Class<?> type, String name) {
+    return Enum.valueOf((Class<? extends Enum>) type, name);
+  }
+
+  private static String decapitalize(String name) {
+    if (name.length() > 1
+        && Character.isUpperCase(name.charAt(0))
+        && Character.isUpperCase(name.charAt(1))) {
+      return name;
+    }
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /** Returns the tuples of the given mapping with merge keys expanded. */
+  private static List<NodeTuple> tuples(MappingNode node) {
+    if (!node.isMerged()) {
+      return node.getValue();
+    }
+    Map<Object, NodeTuple> merged = new LinkedHashMap<>();
+    List<NodeTuple> explicit = new ArrayList<>();
+    for (NodeTuple tuple : node.getValue()) {
+      if (!Tag.MERGE.equals(tuple.getKeyNode().getTag())) {
+        explicit.add(tuple);
+        continue;
+      }
+      Node value = tuple.getValueNode();
+      List<Node> sources =
+          value instanceof SequenceNode ? ((SequenceNode) value).getValue() : List.of(value);
+      for (Node source : sources) {
+        if (!(source instanceof MappingNode)) {
+          throw mismatch(source, Map.class);
+        }
+        for (NodeTuple inherited : tuples((MappingNode) source)) {
+          merged.putIfAbsent(key(inherited), inherited);
+        }
+      }
+    }
+    for (NodeTuple tuple : explicit) {
+      merged.put(key(tuple), tuple);
+    }
+    return new ArrayList<>(merged.values());
+  }
+
+  private static Object key(NodeTuple tuple) {
+    Node key = tuple.getKeyNode();
+    return key instanceof ScalarNode ? ((ScalarNode) key).getValue() : key;
+  }
+
+  private static YAMLException mismatch(Node node, Class<?> type) {
+    return new YAMLException(
+        "Cannot bind " + node.getNodeId() + " onto " + type.getName() + node.getStartMark());
+  }
+
+  private static RuntimeException failure(Class<?> type, Throwable t) {
+    if (t instanceof RuntimeException) {
+      return (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return new YAMLException("Cannot bind " + type.getName(), t);
+  }
+
+  @ThreadSafe
+  private interface IBinding {
+
+    @Nullable
+    Object bind(Node node, Context context);
+  }
+
+  /** Resolved on first use so that recursive types do not recurse during compilation. */
+  @ThreadSafe
+  private final class ObjectBinding implements IBinding {
+
+    private final Class<?> type;
+
+    @Nullable private volatile IBinding delegate;
+
+    private ObjectBinding(Class<?> type) {
+      this.type = type;
+    }
+
+    @Nullable
+    @Override
+    public Object bind(Node node, Context context) {
+      if (node instanceof ScalarNode && !isNull(node)) {
+        return context.fallback(node, type);
+      }
+      IBinding binding = delegate;
+      if (binding == null) {
+        binding = objectBindings.computeIfAbsent(type, YamlBinder.this::compileObject);
+        delegate = binding;
+      }
+      return binding.bind(node, context);
+    }
+  }
+
+  @Immutable
+  private static final class ScalarBinding implements IBinding {
+
+    private final Class<?> type;
+    private final Function<Object, Object> converter;
+
+    private ScalarBinding(Class<?> type, Function<Object, Object> converter) {
+      this.type = type;
+      this.converter = converter;
+    }
+
+    @Nullable
+    @Override
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        if (type.isPrimitive()) {
+          throw mismatch(node, type);
+        }
+        return null;
+      }
+      if (!(node instanceof ScalarNode)) {
+        throw mismatch(node, type);
+      }
+      Object value = context.construct(node);
+      try {
+        return converter.apply(value);
+      } catch (RuntimeException e) {
+        throw new YAMLException("Cannot bind " + value + " onto " + type.getName(), e);
+      }
+    }
+  }
+
+  @Immutable
+  private static final class CollectionBinding implements IBinding {
+
+    private final Class<?> type;
+    private final MethodHandle creator;
+    private final IBinding element;
+
+    private CollectionBinding(Class<?> type, MethodHandle creator, IBinding element) {
+      this.type = type;
+      this.creator = creator;
+      this.element = element;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        return null;
+      }
+      Collection<Object> collection;
+      try {
+        collection = (Collection<Object>) (Object) creator.invokeExact();
+      } catch (Throwable t) {
+        throw failure(type, t);
+      }
+      if (node instanceof SequenceNode) {
+        for (Node item : ((SequenceNode) node).getValue()) {
+          collection.add(element.bind(item, context));
+        }
+      } else if (node instanceof MappingNode && collection instanceof Set) {
+        for (NodeTuple tuple : tuples((MappingNode) node)) {
+          collection.add(element.bind(tuple.getKeyNode(), context));
+        }
+      } else {
+        throw mismatch(node, type);
+      }
+      return collection;
+    }
+  }
+
+  @Immutable
+  private static final class ArrayBinding implements IBinding {
+
+    private final Class<?> type;
+    private final MethodHandle creator;
+    private final MethodHandle setter;
+    private final IBinding element;
+
+    private ArrayBinding(
+        Class<?> type, MethodHandle creator, MethodHandle setter, IBinding element) {
+      this.type = type;
+      this.creator = creator;
+      this.setter = setter;
+      this.element = element;
+    }
+
+    @Nullable
+    @Override
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        return null;
+      }
+      if (node instanceof ScalarNode) {
+        return context.fallback(node, type);
+      }
+      if (!(node instanceof SequenceNode)) {
+        throw mismatch(node, type);
+      }
+      List<Node> nodes = ((SequenceNode) node).getValue();
+      Object array;
+      try {
+        array = (Object) creator.invokeExact(nodes.size());
+      } catch (Throwable t) {
+        throw failure(type, t);
+      }
+      for (int i = 0; i < nodes.size(); i++) {
+        Object value = element.bind(nodes.get(i), context);
+        try {
+          setter.invokeExact(array, i, value);
+        } catch (Throwable t) {
+          throw failure(type, t);
+        }
+      }
+      return array;
+    }
+  }
+
+  @Immutable
+  private static final class MapBinding implements IBinding {
+
+    private final Class<?> type;
+    private final MethodHandle creator;
+    private final IBinding key;
+    private final IBinding value;
+
+    private MapBinding(Class<?> type, MethodHandle creator, IBinding key, IBinding value) {
+      this.type = type;
+      this.creator = creator;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        return null;
+      }
+      if (!(node instanceof MappingNode)) {
+        throw mismatch(node, type);
+      }
+      Map<Object, Object> map;
+      try {
+        map = (Map<Object, Object>) (Object) creator.invokeExact();
+      } catch (Throwable t) {
+        throw failure(type, t);
+      }
+      for (NodeTuple tuple : tuples((MappingNode) node)) {
+        map.put(key.bind(tuple.getKeyNode(), context), value.bind(tuple.getValueNode(), context));
+      }
+      return map;
+    }
+  }
+
+  @Immutable
+  private static final class BeanBinding implements IBinding {
+
+    private final Class<?> type;
+    private final MethodHandle creator;
+    private final ImmutableMap<String, Property> properties;
+
+    private BeanBinding(
+        Class<?> type, MethodHandle creator, ImmutableMap<String, Property> properties) {
+      this.type = type;
+      this.creator = creator;
+      this.properties = properties;
+    }
+
+    @Nullable
+    @Override
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        return null;
+      }
+      if (!(node instanceof MappingNode)) {
+        throw mismatch(node, type);
+      }
+      List<NodeTuple> tuples = tuples((MappingNode) node);
+      for (NodeTuple tuple : tuples) {
+        if (!properties.containsKey(scalar(tuple.getKeyNode(), String.class))) {
+          return context.fallback(node, type);
+        }
+      }
+      Object bean;
+      try {
+        bean = (Object) creator.invokeExact();
+      } catch (Throwable t) {
+        throw failure(type, t);
+      }
+      for (NodeTuple tuple : tuples) {
+        Property property = properties.get(scalar(tuple.getKeyNode(), String.class));
+        Object value = property.binding.bind(tuple.getValueNode(), context);
+        try {
+          property.setter.invokeExact(bean, value);
+        } catch (Throwable t) {
+          throw failure(type, t);
+        }
+      }
+      return bean;
+    }
+  }
+
+  @Immutable
+  private static final class RecordBinding implements IBinding {
+
+    private final Class<?> type;
+    private final MethodHandle creator;
+    private final ImmutableMap<String, Integer> indices;
+    private final IBinding[] bindings;
+    private final Object[] defaults;
+
+    private RecordBinding(
+        Class<?> type,
+        MethodHandle creator,
+        ImmutableMap<String, Integer> indices,
+        IBinding[] bindings,
+        Object[] defaults) {
+      this.type = type;
+      this.creator = creator;
+      this.indices = indices;
+      this.bindings = bindings;
+      this.defaults = defaults;
+    }
+
+    @Nullable
+    @Override
+    public Object bind(Node node, Context context) {
+      if (isNull(node)) {
+        return null;
+      }
+      if (!(node instanceof MappingNode)) {
+        throw mismatch(node, type);
+      }
+      Object[] arguments = defaults.clone();
+      for (NodeTuple tuple : tuples((MappingNode) node)) {
+        String name = scalar(tuple.getKeyNode(), String.class);
+        Integer index = name == null ? null : indices.get(name);
+        if (index == null) {
+          throw new YAMLException(
+              "Unable to find component '" + name + "' on " + type.getName() + node.getStartMark());
+        }
+        arguments[index] = bindings[index].bind(tuple.getValueNode(), context);
+      }
+      try {
+        return (Object) creator.invokeExact(arguments);
+      } catch (Throwable t) {
+        throw failure(type, t);
+      }
+    }
+  }
+
+  @Immutable
+  private static final class Property {
+
+    private final MethodHandle setter;
+    private final IBinding binding;
+
+    private Property(MethodHandle setter, IBinding binding) {
+      this.setter = setter;
+      this.binding = binding;
+    }
+  }
+
+  /** State of a single {@link #bind(Node, Class, Yaml)} call. */
+  @NotThreadSafe
+  private static final class Context {
+
+    @Nullable private Yaml yaml;
+    @Nullable private Generic generic;
+
+    private Context(@Nullable Yaml yaml) {
+      this.yaml = yaml;
+    }
+
+    /**
+     * Constructs the given node by serializing it and loading it back with {@link #yaml}. Nodes
+     * with custom tags are loaded untyped, since loading onto a type replaces the tag of the node.
+     */
+    @Nullable
+    private Object fallback(Node node, Class<?> type) {
+      if (yaml == null) {
+        yaml = new Yaml();
+      }
+      StringWriter writer = new StringWriter();
+      yaml.serialize(node, writer);
+      if (STANDARD_TAGS.contains(node.getTag())) {
+        return yaml.loadAs(writer.toString(), type);
+      }
+      Object value = yaml.load(writer.toString());
+      if (value != null && !type.isInstance(value)) {
+        throw new YAMLException(
+            "Cannot bind " + node.getTag() + " onto " + type.getName() + node.getStartMark());
+      }
+      return value;
+    }
+
+    private Object construct(Node node) {
+      if (generic == null) {
+        generic = new Generic();
+      }
+      return generic.construct(node);
+    }
+  }
+
+  /** Constructs untyped nodes and resolves scalars. */
+  @NotThreadSafe
+  private static final class Generic extends SafeConstructor {
+
+    private Generic() {
+      super(new LoaderOptions());
+    }
+
+    private Object construct(Node node) {
+      return constructObject(node);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package io.contek.tinker.reloading.yaml;
+
+import io.contek.tinker.reloading.CompactMultimap;
+import io.contek.tinker.reloading.ReloadingCompactMultimapStore;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+@ThreadSafe
+public abstract class YamlCompactMultimapParser<YamlType, Key, Value>
+    extends YamlParser<YamlType, CompactMultimap<Key, Value>>
+    implements ReloadingCompactMultimapStore.IParser<Key, Value> {
+
+  public YamlCompactMultimapParser() {}
+
+  public YamlCompactMultimapParser(Yaml yaml) {
+    super(yaml);
+  }
+
+  public YamlCompactMultimapParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlCompactMultimapParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
+}
@@ -0,0 +1,253 @@
+package io.contek.tinker.reloading.yaml;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.CharStreams;
+import io.contek.tinker.reloading.LazyMap;
+import io.contek.tinker.reloading.ReloadingLazyMapStore;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Parser for Yaml files which are a large top-level map. Reloading only indexes the position of
+ * each top-level section, which is then parsed on first access.
+ *
+ * <p>Aliases must refer to anchors defined in the same section. {@code %TAG} directives of the
+ * document apply to every section.
+ *
+ * <p>{@link Yaml} is not thread-safe, so this parser takes a factory instead of an instance. Each
+ * reload indexes with its own instance, and each thread loading sections uses its own instance, so
+ * readers never wait for a reload.
+ *
+ * @param <SectionType> the raw Yaml type of each section.
+ * @param <Key> the key type.
+ * @param <Value> the parsed section type.
+ */
+@ThreadSafe
+public abstract class YamlLazyMapParser<SectionType, Key, Value>
+    implements ReloadingLazyMapStore.IParser<Key, Value> {
+
+  private static final Resolver RESOLVER = new Resolver();
+
+  private final Supplier<Yaml> yamlFactory;
+  private final ThreadLocal<Yaml> sectionYaml;
+  @Nullable private final YamlBinder binder;
+
+  public YamlLazyMapParser() {
+    this(Yaml::new);
+  }
+
+  public YamlLazyMapParser(Supplier<Yaml> yamlFactory) {
+    this.yamlFactory = yamlFactory;
+    this.sectionYaml = ThreadLocal.withInitial(yamlFactory);
+    this.binder = null;
+  }
+
+  public YamlLazyMapParser(YamlBinder binder) {
+    this(Yaml::new, binder);
+  }
+
+  public YamlLazyMapParser(Supplier<Yaml> yamlFactory, YamlBinder binder) {
+    this.yamlFactory = yamlFactory;
+    this.sectionYaml = ThreadLocal.withInitial(yamlFactory);
+    this.binder = binder;
+  }
+
+  @Override
+  public final LazyMap<Key, Value> parse(Path path) throws IOException {
+    String content;
+    try (Reader reader = new UnicodeReader(Files.newInputStream(path))) {
+      content = CharStreams.toString(reader);
+    }
+
+    Map<Key, Section> sections = new LinkedHashMap<>();
+    Yaml yaml = yamlFactory.get();
+    Iterator<Event> events = yaml.parse(new StringReader(content)).iterator();
+    events.next();
+    Event event = events.next();
+    if (event.is(Event.ID.StreamEnd)) {
+      return LazyMap.of();
+    }
+    String directives = toDirectives(((DocumentStartEvent) event).getTags());
+
+    event = events.next();
+    if (!isNull(event)) {
+      if (!event.is(Event.ID.MappingStart)) {
+        throw new YAMLException("Expected a top-level map in " + path + " but found " + event);
+      }
+      Offsets offsets = new Offsets(content);
+      while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+        if (!event.is(Event.ID.Scalar)) {
+          throw new YAMLException("Expected a scalar key in " + path + " but found " + event);
+        }
+        Key key = parseKey(path, ((ScalarEvent) event).getValue());
+        sections.put(key, index(events, offsets));
+      }
+    }
+
+    events.next();
+    event = events.next();
+    if (!event.is(Event.ID.StreamEnd)) {
+      throw new YAMLException("Expected a single document in " + path + " but found " + event);
+    }
+
+    ImmutableList<Key> keys = ImmutableList.copyOf(sections.keySet());
+    Section[] positions = sections.values().toArray(new Section[0]);
+    return LazyMap.of(keys, i -> load(path, keys.get(i), directives, content, positions[i]));
+  }
+
+  /**
+   * @return the raw Yaml type of each section.
+   */
+  protected abstract Class<SectionType> getSectionType();
+
+  /**
+   * Parses the given top-level key.
+   *
+   * @param path the path of the Yaml file.
+   * @param key the raw key.
+   * @return the parsing result.
+   */
+  protected abstract Key parseKey(Path path, String key);
+
+  /**
+   * Parses the given section. Called on first access to the section.
+   *
+   * @param path the path of the Yaml file.
+   * @param key the key of the section.
+   * @param yaml the raw section. {@code null} if it is empty.
+   * @return the parsing result.
+   */
+  protected abstract Value parseSection(Path path, Key key, @Nullable SectionType yaml);
+
+  private Value load(Path path, Key key, String directives, String content, Section section) {
+    String text =
+        directives + " ".repeat(section.indent) + content.substring(section.begin, section.end);
+    SectionType raw;
+    Yaml yaml = sectionYaml.get();
+    if (binder == null) {
+      raw = yaml.loadAs(text, getSectionType());
+    } else {
+      Node node = yaml.compose(new StringReader(text));
+      raw = node == null ? null : binder.bind(node, getSectionType(), yaml);
+    }
+    return parseSection(path, key, raw);
+  }
+
+  private static Section index(Iterator<Event> events, Offsets offsets) {
+    Event first = events.next();
+    Set<String> anchors = new HashSet<>();
+    int depth = 0;
+    Event event = first;
+    while (true) {
+      if (event instanceof NodeEvent) {
+        String anchor = ((NodeEvent) event).getAnchor();
+        if (anchor != null) {
+          if (!event.is(Event.ID.Alias)) {
+            anchors.add(anchor);
+          } else if (!anchors.contains(anchor)) {
+            throw new YAMLException("Alias refers to an anchor in another section: " + event);
+          }
+        }
+      }
+      if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+        depth++;
+      } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+        depth--;
+      }
+      if (depth == 0) {
+        break;
+      }
+      event = events.next();
+    }
+    return new Section(
+        offsets.toCharIndex(first.getStartMark().getIndex()),
+        offsets.toCharIndex(event.getEndMark().getIndex()),
+        first.getStartMark().getColumn());
+  }
+
+  private static String toDirectives(@Nullable Map<String, String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return "";
+    }
+    StringBuilder builder = new StringBuilder();
+    tags.forEach(
+        (handle, prefix) ->
+            builder.append("%TAG ").append(handle).append(' ').append(prefix).append('\n'));
+    return builder.append("---\n").toString();
+  }
+
+  private static boolean isNull(Event event) {
+    if (!event.is(Event.ID.Scalar)) {
+      return false;
+    }
+    ScalarEvent scalar = (ScalarEvent) event;
+    if (!scalar.getImplicit().canOmitTagInPlainScalar()) {
+      return false;
+    }
+    return Tag.NULL.equals(RESOLVER.resolve(NodeId.scalar, scalar.getValue(), true));
+  }
+
+  @Immutable
+  private static final class Section {
+
+    private final int begin;
+    private final int end;
+    private final int indent;
+
+    private Section(int begin, int end, int indent) {
+      this.begin = begin;
+      this.end = end;
+      this.indent = indent;
+    }
+  }
+
+  /** Converts code point indices reported by Yaml marks into char indices in increasing order. */
+  @NotThreadSafe
+  private static final class Offsets {
+
+    private final String content;
+    private final boolean identity;
+
+    private int codePoints = 0;
+    private int chars = 0;
+
+    private Offsets(String content) {
+      this.content = content;
+      this.identity = content.length() == content.codePointCount(0, content.length());
+    }
+
+    private int toCharIndex(int codePointIndex) {
+      if (identity) {
+        return codePointIndex;
+      }
+      chars = content.offsetByCodePoints(chars, codePointIndex - codePoints);
+      codePoints = codePointIndex;
+      return chars;
+    }
+  }
+}
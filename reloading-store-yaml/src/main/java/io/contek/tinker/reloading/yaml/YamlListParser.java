@@ -16,4 +16,12 @@ public abstract class YamlListParser<YamlType, Value>
   public YamlListParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlListParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlListParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
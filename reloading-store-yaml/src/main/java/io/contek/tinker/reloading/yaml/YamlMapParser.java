@@ -16,4 +16,12 @@ public abstract class YamlMapParser<YamlType, Key, Value>
   public YamlMapParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlMapParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlMapParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
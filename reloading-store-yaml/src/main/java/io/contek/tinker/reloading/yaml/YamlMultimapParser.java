@@ -16,4 +16,12 @@ public abstract class YamlMultimapParser<YamlType, Key, Value>
   public YamlMultimapParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlMultimapParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlMultimapParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
@@ -2,6 +2,8 @@ package io.contek.tinker.reloading.yaml;
 
 import io.contek.tinker.reloading.ReloadingStore;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -15,6 +17,7 @@ public abstract class YamlParser<YamlType, ParsedConfig>
     implements ReloadingStore.IParser<ParsedConfig> {
 
   private final Yaml yaml;
+  @Nullable private final YamlBinder binder;
 
   protected YamlParser() {
     this(new Yaml());
@@ -22,13 +25,36 @@ public abstract class YamlParser<YamlType, ParsedConfig>
 
   protected YamlParser(Yaml yaml) {
     this.yaml = yaml;
+    this.binder = null;
+  }
+
+  /**
+   * Creates a parser which binds Yaml files with the given binder instead of SnakeYAML's reflective
+   * bean construction.
+   *
+   * @param binder the binder to map composed nodes onto {@link #getYamlType()}.
+   */
+  protected YamlParser(YamlBinder binder) {
+    this(new Yaml(), binder);
+  }
+
+  /**
+   * Creates a parser which binds Yaml files with the given binder. Nodes the binder cannot bind
+   * directly are constructed by the given Yaml instead, with its constructor settings.
+   *
+   * @param yaml the instance to compose Yaml files and construct nodes the binder cannot bind.
+   * @param binder the binder to map composed nodes onto {@link #getYamlType()}.
+   */
+  protected YamlParser(Yaml yaml, YamlBinder binder) {
+    this.yaml = yaml;
+    this.binder = binder;
   }
 
   @Override
   public final ParsedConfig parse(Path path) throws IOException {
     YamlType raw;
     try (InputStream input = Files.newInputStream(path)) {
-      raw = yaml.loadAs(input, getYamlType());
+      raw = binder == null ? yaml.loadAs(input, getYamlType()) : bind(binder, input);
     }
     return parse(path, raw);
   }
@@ -46,4 +72,10 @@ public abstract class YamlParser<YamlType, ParsedConfig>
    * @return the parsing result.
    */
   protected abstract ParsedConfig parse(Path path, @Nullable YamlType yaml);
+
+  @Nullable
+  private YamlType bind(YamlBinder binder, InputStream input) {
+    Node node = yaml.compose(new UnicodeReader(input));
+    return node == null ? null : binder.bind(node, getYamlType(), yaml);
+  }
 }
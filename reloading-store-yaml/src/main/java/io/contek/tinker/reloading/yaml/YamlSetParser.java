@@ -14,4 +14,12 @@ public abstract class YamlSetParser<YamlType, Value>
   public YamlSetParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlSetParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlSetParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
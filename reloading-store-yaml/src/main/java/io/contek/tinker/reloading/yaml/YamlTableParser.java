@@ -16,4 +16,12 @@ public abstract class YamlTableParser<YamlType, RowKey, ColumnKey, Value>
   public YamlTableParser(Yaml yaml) {
     super(yaml);
   }
+
+  public YamlTableParser(YamlBinder binder) {
+    super(binder);
+  }
+
+  public YamlTableParser(Yaml yaml, YamlBinder binder) {
+    super(yaml, binder);
+  }
 }
@@ -0,0 +1,230 @@
+package io.contek.tinker.reloading.yaml;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class YamlBinderTest {
+
+  private final YamlBinder binder = new YamlBinder();
+
+  @Test
+  void bind_intOverflow_throws() {
+    assertThrows(YAMLException.class, () -> bind("limit: 5000000000"));
+  }
+
+  @Test
+  void bind_fractionOntoInt_throws() {
+    assertThrows(YAMLException.class, () -> bind("limit: 3.7"));
+  }
+
+  @Test
+  void bind_longOverflow_throws() {
+    assertThrows(YAMLException.class, () -> bind("big: 1e30"));
+    assertThrows(YAMLException.class, () -> bind("big: 1.0e+30"));
+  }
+
+  @Test
+  void bind_shortOverflow_throws() {
+    assertThrows(YAMLException.class, () -> bind("small: 70000"));
+  }
+
+  @Test
+  void bind_byteOverflow_throws() {
+    assertThrows(YAMLException.class, () -> bind("tiny: 128"));
+  }
+
+  @Test
+  void bind_multipleCharactersOntoCharacter_throws() {
+    assertThrows(YAMLException.class, () -> bind("letter: abc"));
+  }
+
+  @Test
+  void bind_scalars_sameAsLoadAs() {
+    String yaml = "limit: 1_000\nbig: 5000000000\nsmall: -3\ntiny: 0x7f\nletter: z\n";
+    Config bound = bind(yaml);
+    Config loaded = new Yaml().loadAs(yaml, Config.class);
+    assertEquals(loaded.limit, bound.limit);
+    assertEquals(loaded.big, bound.big);
+    assertEquals(loaded.small, bound.small);
+    assertEquals(loaded.tiny, bound.tiny);
+    assertEquals(loaded.letter, bound.letter);
+  }
+
+  @Test
+  void bind_concreteCollections() {
+    Config config = bind("names: [a, b]\nweights: {y: 2, x: 1}");
+    assertEquals(List.of("a", "b"), config.names);
+    assertEquals(Map.of("x", 1, "y", 2), config.weights);
+    assertEquals(List.of("x", "y"), new ArrayList<>(config.weights.keySet()));
+  }
+
+  @Test
+  void bind_arrays() {
+    Config config = bind("tags: [a, b]\nsizes: [1, 2, 3]");
+    assertArrayEquals(new String[] {"a", "b"}, config.tags);
+    assertArrayEquals(new int[] {1, 2, 3}, config.sizes);
+  }
+
+  @Test
+  void bind_nullIntoPrimitiveArray_throws() {
+    assertThrows(YAMLException.class, () -> bind("sizes: [1, ~]"));
+  }
+
+  @Test
+  void bind_scalarOntoOtherClasses_sameAsLoadAs() {
+    String yaml = "when: 2020-01-01\nuri: https://example.com/a\nprice: 12.50\n";
+    Config bound = bind(yaml);
+    Config loaded = new Yaml().loadAs(yaml, Config.class);
+    assertEquals(loaded.when, bound.when);
+    assertEquals(Date.class, bound.when.getClass());
+    assertEquals(URI.create("https://example.com/a"), bound.uri);
+    assertEquals("12.50", bound.price.amount);
+  }
+
+  @Test
+  void bind_customTag_constructedByYaml() {
+    Yaml yaml = new Yaml(new UpperCaseConstructor());
+    Config config = bind(yaml, "names: [a, !upper b]\nwho: !upper c\n");
+    assertEquals(List.of("a", "B"), config.names);
+    assertEquals("C", config.who);
+  }
+
+  @Test
+  void bind_missingProperty_sameAsYaml() {
+    assertThrows(YAMLException.class, () -> bind("limit: 1\nunknown: 2\n"));
+
+    PropertyUtils propertyUtils = new PropertyUtils();
+    propertyUtils.setSkipMissingProperties(true);
+    Constructor constructor = new Constructor(new LoaderOptions());
+    constructor.setPropertyUtils(propertyUtils);
+    Config config = bind(new Yaml(constructor), "limit: 1\nunknown: 2\n");
+    assertEquals(1, config.limit);
+  }
+
+  @Test
+  void bind_overloadedSetters_usesGetterType() {
+    Node node = new Yaml().compose(new StringReader("size: 3"));
+    assertEquals(3, binder.bind(node, Overloaded.class).getSize());
+  }
+
+  @Test
+  void bind_ambiguousSetters_throws() {
+    Node node = new Yaml().compose(new StringReader("value: 3"));
+    assertThrows(YAMLException.class, () -> binder.bind(node, Ambiguous.class));
+  }
+
+  @Test
+  void bind_genericSetter_skipsBridge() {
+    Node node = new Yaml().compose(new StringReader("item: 5"));
+    assertEquals("5", binder.bind(node, Child.class).item);
+  }
+
+  private Config bind(String yaml) {
+    return bind(new Yaml(), yaml);
+  }
+
+  private Config bind(Yaml yaml, String text) {
+    return binder.bind(yaml.compose(new StringReader(text)), Config.class, yaml);
+  }
+
+  public static final class Config {
+    public int limit;
+    public long big;
+    public short small;
+    public byte tiny;
+    public Character letter;
+    public ArrayList<String> names;
+    public TreeMap<String, Integer> weights;
+    public String[] tags;
+    public int[] sizes;
+    public Date when;
+    public URI uri;
+    public Money price;
+    public String who;
+  }
+
+  public static final class Money {
+
+    private final String amount;
+
+    public Money(String amount) {
+      this.amount = amount;
+    }
+  }
+
+  public static final class Overloaded {
+
+    private int size;
+
+    public int getSize() {
+      return size;
+    }
+
+    public void setSize(int size) {
+      this.size = size;
+    }
+
+    public void setSize(String size) {
+      this.size = -1;
+    }
+  }
+
+  public static final class Ambiguous {
+
+    public void setValue(int value) {}
+
+    public void setValue(String value) {}
+  }
+
+  public static class Parent<T> {
+
+    T item;
+
+    public void setItem(T item) {
+      this.item = item;
+    }
+  }
+
+  public static final class Child extends Parent<String> {
+
+    @Override
+    public void setItem(String item) {
+      this.item = item;
+    }
+  }
+
+  private static final class UpperCaseConstructor extends Constructor {
+
+    private UpperCaseConstructor() {
+      super(new LoaderOptions());
+      yamlConstructors.put(
+          new Tag("!upper"),
+          new AbstractConstruct() {
+            @Override
+            public Object construct(Node node) {
+              return ((ScalarNode) node).getValue().toUpperCase();
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package io.contek.tinker.reloading.yaml;
+
+import io.contek.tinker.reloading.LazyMap;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class YamlLazyMapParserTest {
+
+  private final Parser parser = new Parser();
+
+  @Test
+  void parse_blockAndFlowValues_sameAsLoad() throws IOException {
+    assertSameAsLoad(
+        "a: 1\n"
+            + "b:\n"
+            + "  c: [1, 2, {d: 3}]\n"
+            + "  e:\n"
+            + "    - x\n"
+            + "    - y: z\n"
+            + "f: {g: 1, h: [2, 3]}\n"
+            + "i: [4,\n"
+            + "  5]\n"
+            + "j:\n"
+            + "- k\n"
+            + "- l\n"
+            + "m: \"quoted: value\"\n"
+            + "n:\n");
+  }
+
+  @Test
+  void parse_blockScalars_sameAsLoad() throws IOException {
+    assertSameAsLoad(
+        "a: |\n"
+            + "  line 1\n"
+            + "    line 2\n"
+            + "b: >-\n"
+            + "  folded\n"
+            + "  text\n"
+            + "c: |2\n"
+            + "    indented\n"
+            + "   less\n"
+            + "d:\n"
+            + "  e: |+\n"
+            + "    kept\n"
+            + "\n"
+            + "f: 1\n");
+  }
+
+  @Test
+  void parse_crlf_sameAsLoad() throws IOException {
+    assertSameAsLoad("a:\r\n  b: 1\r\n  c: |\r\n    x\r\n    y\r\nd: [1, 2]\r\n");
+  }
+
+  @Test
+  void parse_astralCharacters_sameAsLoad() throws IOException {
+    assertSameAsLoad(
+        "\uD83D\uDE00: \uD83D\uDE01\n"
+            + "a:\n"
+            + "  b: \"\uD83D\uDE02 text\"\n"
+            + "  c: [\uD83D\uDE03, d]\n"
+            + "e: |\n"
+            + "  \uD83D\uDE04\n"
+            + "  f\n");
+  }
+
+  @Test
+  void parse_anchorsInSection_sameAsLoad() throws IOException {
+    assertSameAsLoad("a:\n  b: &x {c: 1}\n  d: *x\n  e:\n    <<: *x\n    f: 2\n");
+  }
+
+  @Test
+  void parse_tagDirective_sameAsLoad() throws IOException {
+    assertSameAsLoad("%TAG !e! tag:yaml.org,2002:\n---\na: !e!str 12\nb: [!e!int '3']\n");
+  }
+
+  @Test
+  void parse_aliasToAnotherSection_throws() {
+    assertThrows(YAMLException.class, () -> parse("a: &x 1\nb: *x\n"));
+  }
+
+  @Test
+  void parse_emptyDocument_empty() throws IOException {
+    assertEquals(0, parse("").size());
+    assertEquals(0, parse("~\n").size());
+  }
+
+  @Test
+  void parse_notMap_throws() {
+    assertThrows(YAMLException.class, () -> parse("- a\n- b\n"));
+  }
+
+  @Test
+  void parse_multipleDocuments_throws() {
+    assertThrows(YAMLException.class, () -> parse("a: 1\n---\nb: 2\n"));
+  }
+
+  private void assertSameAsLoad(String yaml) throws IOException {
+    Map<Object, Object> expected = new Yaml().load(yaml);
+    LazyMap<String, Object> actual = parse(yaml);
+    List<String> expectedKeys = new ArrayList<>();
+    expected.keySet().forEach(key -> expectedKeys.add(String.valueOf(key)));
+    assertEquals(expectedKeys, actual.keySet().asList());
+    expected.forEach(
+        (key, value) ->
+            assertEquals(value == null ? "" : value, actual.get(String.valueOf(key))));
+  }
+
+  private LazyMap<String, Object> parse(String yaml) throws IOException {
+    Path path = Files.createTempFile("lazy", ".yml");
+    try {
+      Files.write(path, yaml.getBytes(StandardCharsets.UTF_8));
+      return parser.parse(path);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  private static final class Parser extends YamlLazyMapParser<Object, String, Object> {
+
+    @Override
+    protected Class<Object> getSectionType() {
+      return Object.class;
+    }
+
+    @Override
+    protected String parseKey(Path path, String key) {
+      return key;
+    }
+
+    @Override
+    protected Object parseSection(Path path, String key, @Nullable Object yaml) {
+      return yaml == null ? "" : yaml;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package io.contek.tinker.reloading;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable multimap in compressed sparse row layout. Values of all keys are stored in one
+ * contiguous array, and each key maps to a range of that array.
+ *
+ * @param <Key> the key type.
+ * @param <Value> the value type.
+ */
+@Immutable
+public final class CompactMultimap<Key, Value> {
+
+  private static final CompactMultimap<?, ?> EMPTY =
+      new CompactMultimap<>(ImmutableMap.of(), new int[] {0}, new Object[0]);
+
+  private final ImmutableMap<Key, Integer> indices;
+  private final int[] offsets;
+  private final Object[] values;
+
+  private CompactMultimap(ImmutableMap<Key, Integer> indices, int[] offsets, Object[] values) {
+    this.indices = indices;
+    this.offsets = offsets;
+    this.values = values;
+  }
+
+  /**
+   * Returns an empty multimap.
+   *
+   * @return an empty multimap.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Key, Value> CompactMultimap<Key, Value> of() {
+    return (CompactMultimap<Key, Value>) EMPTY;
+  }
+
+  /**
+   * Creates a multimap with the same entries as the given multimap.
+   *
+   * @param multimap the multimap to copy.
+   * @return the created multimap.
+   */
+  public static <Key, Value> CompactMultimap<Key, Value> copyOf(
+      Multimap<? extends Key, ? extends Value> multimap) {
+    Builder<Key, Value> builder = new Builder<>(multimap.size());
+    multimap.forEach(builder::put);
+    return builder.build();
+  }
+
+  public static <Key, Value> Builder<Key, Value> builder() {
+    return new Builder<>(16);
+  }
+
+  /**
+   * @return the number of entries.
+   */
+  public int size() {
+    return values.length;
+  }
+
+  public boolean isEmpty() {
+    return values.length == 0;
+  }
+
+  public ImmutableSet<Key> keySet() {
+    return indices.keySet();
+  }
+
+  public boolean containsKey(Key key) {
+    return indices.containsKey(key);
+  }
+
+  /**
+   * Returns the values of the given key without copying.
+   *
+   * @param key the key.
+   * @return an unmodifiable view of the values. Empty if the key does not exist.
+   */
+  public List<Value> get(Key key) {
+    Integer index = indices.get(key);
+    if (index == null) {
+      return List.of();
+    }
+    return new Slice<>(values, offsets[index], offsets[index + 1]);
+  }
+
+  /**
+   * @return an unmodifiable view of all values, grouped by key in the order of {@link #keySet()}.
+   */
+  public List<Value> values() {
+    return new Slice<>(values, 0, values.length);
+  }
+
+  /**
+   * Performs the given action on each entry, grouped by key in the order of {@link #keySet()}.
+   *
+   * @param action the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super Key, ? super Value> action) {
+    int index = 0;
+    for (Key key : indices.keySet()) {
+      for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+        action.accept(key, (Value) values[i]);
+      }
+      index++;
+    }
+  }
+
+  /**
+   * Two multimaps are equal if they have the same keys in the same order, and the same values of
+   * each key in the same order.
+   */
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CompactMultimap)) {
+      return false;
+    }
+    CompactMultimap<?, ?> that = (CompactMultimap<?, ?>) o;
+    return indices.keySet().asList().equals(that.indices.keySet().asList())
+        && Arrays.equals(offsets, that.offsets)
+        && Arrays.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = indices.keySet().asList().hashCode();
+    result = 31 * result + Arrays.hashCode(offsets);
+    result = 31 * result + Arrays.hashCode(values);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append('{');
+    int index = 0;
+    for (Key key : indices.keySet()) {
+      if (index > 0) {
+        builder.append(", ");
+      }
+      builder
+          .append(key)
+          .append('=')
+          .append(new Slice<>(values, offsets[index], offsets[index + 1]));
+      index++;
+    }
+    return builder.append('}').toString();
+  }
+
+  /** Builder of {@link CompactMultimap}. Values of the same key keep their insertion order. */
+  @NotThreadSafe
+  public static final class Builder<Key, Value> {
+
+    private final Map<Key, Integer> indices = new LinkedHashMap<>();
+
+    private int[] entryIndices;
+    private Object[] entryValues;
+    private int size = 0;
+
+    private Builder(int expectedSize) {
+      this.entryIndices = new int[Math.max(expectedSize, 1)];
+      this.entryValues = new Object[Math.max(expectedSize, 1)];
+    }
+
+    public Builder<Key, Value> put(Key key, Value value) {
+      checkNotNull(key);
+      checkNotNull(value);
+      if (size == entryValues.length) {
+        int capacity = entryValues.length * 2;
+        entryIndices = Arrays.copyOf(entryIndices, capacity);
+        entryValues = Arrays.copyOf(entryValues, capacity);
+      }
+      entryIndices[size] = indices.computeIfAbsent(key, k -> indices.size());
+      entryValues[size] = value;
+      size++;
+      return this;
+    }
+
+    public Builder<Key, Value> putAll(Key key, Iterable<? extends Value> values) {
+      values.forEach(value -> put(key, value));
+      return this;
+    }
+
+    public CompactMultimap<Key, Value> build() {
+      if (size == 0) {
+        return of();
+      }
+      int[] offsets = new int[indices.size() + 1];
+      for (int i = 0; i < size; i++) {
+        offsets[entryIndices[i] + 1]++;
+      }
+      for (int i = 0; i < indices.size(); i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      int[] cursors = Arrays.copyOf(offsets, indices.size());
+      Object[] values = new Object[size];
+      for (int i = 0; i < size; i++) {
+        values[cursors[entryIndices[i]]++] = entryValues[i];
+      }
+      return new CompactMultimap<>(ImmutableMap.copyOf(indices), offsets, values);
+    }
+  }
+
+  @Immutable
+  private static final class Slice<Value> extends AbstractList<Value> implements RandomAccess {
+
+    private final Object[] values;
+    private final int from;
+    private final int to;
+
+    private Slice(Object[] values, int from, int to) {
+      this.values = values;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Value get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return (Value) values[from + index];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package io.contek.tinker.reloading;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable map whose values are loaded on first access and memoized afterwards.
+ *
+ * <p>Once a value is loaded, it is memoized and the loader is not invoked for it again. Concurrent
+ * first accesses to the same key may each invoke the loader, but only one result is ever published
+ * and returned.
+ *
+ * <p>If the loader fails, nothing is memoized and {@link #get(Object)} throws the failure on every
+ * access to that key. Such failures happen after the reload that created this map has succeeded,
+ * so they are not reported to {@link ReloadingStore.IListener#onError(Throwable)}.
+ *
+ * @param <Key> the key type.
+ * @param <Value> the value type.
+ */
+@ThreadSafe
+public final class LazyMap<Key, Value> {
+
+  private static final LazyMap<?, ?> EMPTY =
+      new LazyMap<>(
+          ImmutableMap.of(),
+          i -> {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+          });
+
+  private final ImmutableMap<Key, Integer> indices;
+  private final IntFunction<? extends Value> loader;
+  private final AtomicReferenceArray<Value> values;
+
+  private LazyMap(ImmutableMap<Key, Integer> indices, IntFunction<? extends Value> loader) {
+    this.indices = indices;
+    this.loader = loader;
+    this.values = new AtomicReferenceArray<>(indices.size());
+  }
+
+  /**
+   * Returns an empty map.
+   *
+   * @return an empty map.
+   */
+  @SuppressWarnings("unchecked")
+  public static <Key, Value> LazyMap<Key, Value> of() {
+    return (LazyMap<Key, Value>) EMPTY;
+  }
+
+  /**
+   * Creates a map of the given keys.
+   *
+   * @param keys the distinct keys of the map.
+   * @param loader the function to load the value of the key at the given position of {@code keys}.
+   *     It must not return {@code null}.
+   * @return the created map.
+   * @throws IllegalArgumentException if {@code keys} contains duplicates.
+   */
+  public static <Key, Value> LazyMap<Key, Value> of(
+      ImmutableList<Key> keys, IntFunction<? extends Value> loader)
+      throws IllegalArgumentException {
+    if (keys.isEmpty()) {
+      return of();
+    }
+    ImmutableMap.Builder<Key, Integer> indices = ImmutableMap.builderWithExpectedSize(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      indices.put(keys.get(i), i);
+    }
+    return new LazyMap<>(indices.buildOrThrow(), loader);
+  }
+
+  public int size() {
+    return indices.size();
+  }
+
+  public boolean isEmpty() {
+    return indices.isEmpty();
+  }
+
+  public ImmutableSet<Key> keySet() {
+    return indices.keySet();
+  }
+
+  public boolean containsKey(Key key) {
+    return indices.containsKey(key);
+  }
+
+  /**
+   * Returns the value of the given key, loading it if this is the first access.
+   *
+   * @param key the key.
+   * @return the value. {@code null} if the key does not exist.
+   * @throws RuntimeException if the value fails to load. Thrown again on every access until a
+   *     reload replaces this map.
+   */
+  @Nullable
+  public Value get(Key key) {
+    Integer index = indices.get(key);
+    if (index == null) {
+      return null;
+    }
+    Value value = values.get(index);
+    if (value != null) {
+      return value;
+    }
+    Value loaded = loader.apply(index);
+    if (loaded == null) {
+      throw new NullPointerException(key.toString());
+    }
+    return values.compareAndSet(index, null, loaded) ? loaded : values.get(index);
+  }
+
+  /**
+   * @return the number of values which have been loaded.
+   */
+  public int getLoadedCount() {
+    int count = 0;
+    for (int i = 0; i < values.length(); i++) {
+      if (values.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -38,6 +38,11 @@ public abstract class ReloadingBiMapStore<Key, Value> extends ReloadingStore<Imm
     return item == null ? ImmutableBiMap.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableBiMap<Key, Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableBiMap} from a file. */
   @ThreadSafe
   public interface IParser<Key, Value> extends ReloadingStore.IParser<ImmutableBiMap<Key, Value>> {}
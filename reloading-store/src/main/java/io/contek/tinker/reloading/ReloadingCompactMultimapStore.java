@@ -0,0 +1,44 @@
+package io.contek.tinker.reloading;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Multimap store backed by {@link CompactMultimap}, for multimaps with a large number of values.
+ *
+ * @param <Key> the key type.
+ * @param <Value> the value type.
+ */
+@ThreadSafe
+public abstract class ReloadingCompactMultimapStore<Key, Value>
+    extends ReloadingStore<CompactMultimap<Key, Value>> {
+
+  protected ReloadingCompactMultimapStore(Path configPath, IParser<Key, Value> parser) {
+    super(configPath, parser);
+  }
+
+  public final List<Value> get(Key key) {
+    CompactMultimap<Key, Value> multimap = getMultimap();
+    return multimap.get(key);
+  }
+
+  public final CompactMultimap<Key, Value> getMultimap() {
+    CompactMultimap<Key, Value> item = getParsedConfig();
+    return item == null ? CompactMultimap.of() : item;
+  }
+
+  @Override
+  protected final long countEntries(CompactMultimap<Key, Value> config) {
+    return config.size();
+  }
+
+  /** Parser to read and parse {@link CompactMultimap} from a file. */
+  @ThreadSafe
+  public interface IParser<Key, Value> extends ReloadingStore.IParser<CompactMultimap<Key, Value>> {}
+
+  /** Listener which gets called when {@link ReloadingCompactMultimapStore} has update. */
+  @ThreadSafe
+  public interface IListener<Key, Value>
+      extends ReloadingStore.IListener<CompactMultimap<Key, Value>> {}
+}
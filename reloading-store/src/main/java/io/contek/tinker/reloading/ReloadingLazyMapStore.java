@@ -0,0 +1,57 @@
+package io.contek.tinker.reloading;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Map store whose values are parsed on first access instead of on every reload.
+ *
+ * @param <Key> the key type.
+ * @param <Value> the value type.
+ */
+@ThreadSafe
+public abstract class ReloadingLazyMapStore<Key, Value> extends ReloadingStore<LazyMap<Key, Value>> {
+
+  protected ReloadingLazyMapStore(Path configPath, IParser<Key, Value> parser) {
+    super(configPath, parser);
+  }
+
+  public final Value get(Key key) throws NoSuchElementException {
+    return getOrThrow(key, NoSuchElementException::new);
+  }
+
+  public final <E extends Throwable> Value getOrThrow(Key key, Supplier<E> t) throws E {
+    Value value = getNullable(key);
+    if (value == null) {
+      throw t.get();
+    }
+    return value;
+  }
+
+  @Nullable
+  public final Value getNullable(Key key) {
+    LazyMap<Key, Value> map = getMap();
+    return map.get(key);
+  }
+
+  public final LazyMap<Key, Value> getMap() {
+    LazyMap<Key, Value> item = getParsedConfig();
+    return item == null ? LazyMap.of() : item;
+  }
+
+  @Override
+  protected final long countEntries(LazyMap<Key, Value> config) {
+    return config.size();
+  }
+
+  /** Parser to read and index {@link LazyMap} from a file. */
+  @ThreadSafe
+  public interface IParser<Key, Value> extends ReloadingStore.IParser<LazyMap<Key, Value>> {}
+
+  /** Listener which gets called when {@link ReloadingLazyMapStore} has update. */
+  @ThreadSafe
+  public interface IListener<Key, Value> extends ReloadingStore.IListener<LazyMap<Key, Value>> {}
+}
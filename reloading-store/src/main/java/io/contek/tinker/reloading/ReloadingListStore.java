@@ -39,6 +39,11 @@ public abstract class ReloadingListStore<Value> extends ReloadingStore<Immutable
     return item == null ? ImmutableList.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableList<Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableList} from a file. */
   @ThreadSafe
   public interface IParser<Value> extends ReloadingStore.IParser<ImmutableList<Value>> {}
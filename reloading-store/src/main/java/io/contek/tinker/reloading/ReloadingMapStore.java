@@ -39,6 +39,11 @@ public abstract class ReloadingMapStore<Key, Value> extends ReloadingStore<Immut
     return item == null ? ImmutableMap.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableMap<Key, Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableMap} from a file. */
   @ThreadSafe
   public interface IParser<Key, Value> extends ReloadingStore.IParser<ImmutableMap<Key, Value>> {}
@@ -24,6 +24,11 @@ public abstract class ReloadingMultimapStore<Key, Value>
     return item == null ? ImmutableMultimap.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableMultimap<Key, Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableMultimap} from a file. */
   @ThreadSafe
   public interface IParser<Key, Value> extends ReloadingStore.IParser<ImmutableMultimap<Key, Value>> {}
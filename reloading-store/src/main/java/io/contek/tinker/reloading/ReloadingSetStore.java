@@ -17,6 +17,11 @@ public abstract class ReloadingSetStore<Value> extends ReloadingStore<ImmutableS
     return item == null ? ImmutableSet.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableSet<Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableSet} from a file. */
   @ThreadSafe
   public interface IParser<Value> extends ReloadingStore.IParser<ImmutableSet<Value>> {}
@@ -1,16 +1,20 @@
 package io.contek.tinker.reloading;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
@@ -32,9 +36,12 @@ public abstract class ReloadingStore<ParsedConfig> {
   private final AtomicReference<ListenableFuture<?>> started = new AtomicReference<>(null);
   private final AtomicReference<Instant> modifiedTimeHolder = new AtomicReference<>(null);
   private final AtomicReference<ParsedConfig> holder = new AtomicReference<>(null);
+  private final AtomicLong versionHolder = new AtomicLong(0);
+  private final AtomicReference<RetainedSize> retainedSizeHolder = new AtomicReference<>(null);
 
-  private Duration initialDelay = Duration.ZERO;
-  private Duration delay = Duration.ofSeconds(10);
+  private ListeningScheduledExecutorService executor;
+  private volatile Duration initialDelay = Duration.ZERO;
+  private volatile Duration delay = Duration.ofSeconds(10);
   private final List<IListener<? super ParsedConfig>> listeners = new LinkedList<>();
 
   protected ReloadingStore(Path configPath, IParser<ParsedConfig> parser) {
@@ -43,51 +50,57 @@ public abstract class ReloadingStore<ParsedConfig> {
   }
 
   /**
-   * Sets the delay before the first {@link #checkAndReload()} call.
+   * Sets the delay before the first {@link #checkAndReload(boolean)} call. Takes effect on the next
+   * {@link #start()} if this store has already started.
    *
-   * @param initialDelay the delay before the first {@link #checkAndReload()} call.
+   * @param initialDelay the delay before the first {@link #checkAndReload(boolean)} call.
    * @return this store.
-   * @throws IllegalArgumentException if the input is not positive.
-   * @throws ReloadingStoreAlreadyStartedException if the store has already started.
+   * @throws IllegalArgumentException if the input is negative.
    */
   public ReloadingStore<ParsedConfig> setInitialDelay(Duration initialDelay)
-      throws IllegalArgumentException, ReloadingStoreAlreadyStartedException {
-    if (delay.isNegative()) {
-      throw new IllegalArgumentException(delay.toString());
+      throws IllegalArgumentException {
+    if (initialDelay.isNegative()) {
+      throw new IllegalArgumentException(initialDelay.toString());
     }
 
     synchronized (started) {
-      if (started.get() != null) {
-        throw new ReloadingStoreNotStartedException();
-      }
       this.initialDelay = initialDelay;
     }
     return this;
   }
 
   /**
-   * Sets the interval between two consecutive {@link #checkAndReload()} calls.
+   * Sets the interval between two consecutive {@link #checkAndReload(boolean)} calls. If this
+   * store has already started, the polling is rescheduled with the new interval.
    *
-   * @param delay the interval between two consecutive {@link #checkAndReload()} calls.
+   * @param delay the interval between two consecutive {@link #checkAndReload(boolean)} calls.
    * @return this store.
-   * @throws IllegalArgumentException if the put is not positive.
-   * @throws ReloadingStoreAlreadyStartedException if the store has already started.
+   * @throws IllegalArgumentException if the input is not positive.
    */
-  public ReloadingStore<ParsedConfig> setDelay(Duration delay)
-      throws IllegalArgumentException, ReloadingStoreAlreadyStartedException {
+  public ReloadingStore<ParsedConfig> setDelay(Duration delay) throws IllegalArgumentException {
     if (delay.isZero() || delay.isNegative()) {
       throw new IllegalArgumentException(delay.toString());
     }
 
     synchronized (started) {
-      if (started.get() != null) {
-        throw new ReloadingStoreNotStartedException();
-      }
       this.delay = delay;
+      ListenableFuture<?> future = started.get();
+      if (future != null && !future.isDone()) {
+        future.cancel(false);
+        started.set(executor.scheduleWithFixedDelay(() -> checkAndReload(false), delay, delay));
+      }
     }
     return this;
   }
 
+  public final Duration getInitialDelay() {
+    return initialDelay;
+  }
+
+  public final Duration getDelay() {
+    return delay;
+  }
+
   /**
    * Adds the given listener to {@link #listeners}.
    *
@@ -117,7 +130,7 @@ public abstract class ReloadingStore<ParsedConfig> {
 
   /**
    * Starts this store, which will periodically parse the file at {@link #configPath} and store the
-   * parsing result.
+   * parsing result. The store is also added to {@link ReloadingStoreRegistry}.
    *
    * @throws ReloadingStoreAlreadyStartedException if this store has already started.
    */
@@ -128,9 +141,18 @@ public abstract class ReloadingStore<ParsedConfig> {
             if (oldValue != null && !oldValue.isDone()) {
               throw new ReloadingStoreAlreadyStartedException();
             }
-            return listeningDecorator(newSingleThreadScheduledExecutor())
-                .scheduleWithFixedDelay(this::checkAndReload, initialDelay, delay);
+            if (executor != null) {
+              executor.shutdown();
+            }
+            executor = listeningDecorator(newSingleThreadScheduledExecutor());
+            return executor.scheduleWithFixedDelay(
+                () -> checkAndReload(false), initialDelay, delay);
           });
+      try {
+        ReloadingStoreRegistry.register(this);
+      } catch (Exception e) {
+        onError(e);
+      }
     }
   }
 
@@ -142,11 +164,95 @@ public abstract class ReloadingStore<ParsedConfig> {
             if (oldValue != null) {
               oldValue.cancel(true);
             }
+            if (executor != null) {
+              executor.shutdown();
+              executor = null;
+            }
             return null;
           });
+      try {
+        ReloadingStoreRegistry.unregister(this);
+      } catch (Exception e) {
+        onError(e);
+      }
+    }
+  }
+
+  public final boolean isStarted() {
+    synchronized (started) {
+      ListenableFuture<?> future = started.get();
+      return future != null && !future.isDone();
     }
   }
 
+  /**
+   * Reads and parses the file at {@link #configPath} immediately, even if its modified time has not
+   * changed. Blocks until the reload has finished.
+   *
+   * @throws ReloadingStoreNotStartedException if the store is not started.
+   * @throws ReloadingStoreException if the file is missing or fails to parse. The stored value is
+   *     unchanged and the cause is also reported to the listeners.
+   */
+  public final void reloadNow()
+      throws ReloadingStoreNotStartedException, ReloadingStoreException {
+    synchronized (started) {
+      if (started.get() == null) {
+        throw new ReloadingStoreNotStartedException();
+      }
+    }
+    Throwable failure = checkAndReload(true);
+    if (failure != null) {
+      throw new ReloadingStoreException(failure);
+    }
+  }
+
+  public final Path getConfigPath() {
+    return configPath;
+  }
+
+  /**
+   * @return the number of successful reloads so far.
+   */
+  public final long getVersion() {
+    return versionHolder.get();
+  }
+
+  /**
+   * @return the modified time of the file when it was last reloaded. {@code null} if no value is
+   *     stored.
+   */
+  @Nullable
+  public final Instant getModifiedTime() {
+    return modifiedTimeHolder.get();
+  }
+
+  /**
+   * @return the number of entries in the stored value. {@code 0} if no value is stored.
+   */
+  public final long getEntryCount() {
+    ParsedConfig config = holder.get();
+    return config == null ? 0 : countEntries(config);
+  }
+
+  /**
+   * Returns the estimated memory retained by the stored value, including its keys and values. It is
+   * computed when first requested after each reload, so values loaded lazily afterwards are not
+   * included until the next reload.
+   *
+   * @return the estimated number of bytes. {@code 0} if no value is stored.
+   */
+  public final long getEstimatedRetainedSize() {
+    long version = versionHolder.get();
+    RetainedSize cached = retainedSizeHolder.get();
+    if (cached != null && cached.version == version) {
+      return cached.size;
+    }
+    ParsedConfig config = holder.get();
+    long size = config == null ? 0 : estimateRetainedSize(config);
+    retainedSizeHolder.set(new RetainedSize(version, size));
+    return size;
+  }
+
   /**
    * Returns the latest stored value.
    *
@@ -165,22 +271,56 @@ public abstract class ReloadingStore<ParsedConfig> {
     }
   }
 
-  private void checkAndReload() {
+  /**
+   * Counts the entries in the given value.
+   *
+   * @param config the stored value.
+   * @return the number of entries.
+   */
+  protected long countEntries(ParsedConfig config) {
+    return 1;
+  }
+
+  /**
+   * Estimates the memory retained by the given value. By default, this walks the object graph of
+   * the value, sampling large collections, maps and arrays.
+   *
+   * @param config the stored value.
+   * @return the estimated number of bytes.
+   */
+  protected long estimateRetainedSize(ParsedConfig config) {
+    return RetainedSizeEstimator.estimate(config);
+  }
+
+  /**
+   * Reloads the file at {@link #configPath} if it has changed, or unconditionally if {@code force}.
+   *
+   * @param force whether to reload even if the modified time has not changed, and to treat a
+   *     missing file as a failure.
+   * @return the failure which prevented the reload. {@code null} if the reload succeeded or was not
+   *     needed.
+   */
+  @Nullable
+  private Throwable checkAndReload(boolean force) {
+    AtomicReference<Throwable> failureHolder = new AtomicReference<>(null);
     synchronized (modifiedTimeHolder) {
       modifiedTimeHolder.updateAndGet(
           oldModifiedTime -> {
             if (!isRegularFile(configPath)) {
+              if (force) {
+                fail(failureHolder, new NoSuchFileException(configPath.toString()));
+              }
               return oldModifiedTime;
             }
             Instant newModifiedTime;
             try {
               newModifiedTime = getLastModifiedTime(configPath).toInstant();
             } catch (IOException e) {
-              onError(e);
+              fail(failureHolder, e);
               return oldModifiedTime;
             }
 
-            if (newModifiedTime.equals(oldModifiedTime)) {
+            if (!force && newModifiedTime.equals(oldModifiedTime)) {
               return oldModifiedTime;
             }
 
@@ -200,18 +340,25 @@ public abstract class ReloadingStore<ParsedConfig> {
                           }
                         });
                 if (errorHolder.get() != null) {
-                  onError(errorHolder.get());
+                  fail(failureHolder, errorHolder.get());
                   return oldModifiedTime;
                 }
               } catch (Throwable t) {
-                onError(t);
+                fail(failureHolder, t);
                 return oldModifiedTime;
               }
+              versionHolder.incrementAndGet();
               onReload(newConfig, oldConfig, newModifiedTime);
               return newModifiedTime;
             }
           });
     }
+    return failureHolder.get();
+  }
+
+  private void fail(AtomicReference<Throwable> failureHolder, Throwable t) {
+    failureHolder.set(t);
+    onError(t);
   }
 
   private void onError(Throwable t) {
@@ -227,6 +374,18 @@ public abstract class ReloadingStore<ParsedConfig> {
     }
   }
 
+  @Immutable
+  private static final class RetainedSize {
+
+    private final long version;
+    private final long size;
+
+    private RetainedSize(long version, long size) {
+      this.version = version;
+      this.size = size;
+    }
+  }
+
   /** Parser to read and parse content from a file. */
   @ThreadSafe
   public interface IParser<ParsedConfig> {
@@ -7,4 +7,8 @@ public final class ReloadingStoreException extends IllegalStateException {
 
   ReloadingStoreException() {
   }
+
+  ReloadingStoreException(Throwable cause) {
+    super(cause);
+  }
 }
@@ -0,0 +1,47 @@
+package io.contek.tinker.reloading;
+
+import javax.annotation.Nullable;
+
+/** Management interface of a live {@link ReloadingStore}. */
+public interface ReloadingStoreMXBean {
+
+  String getConfigPath();
+
+  boolean isStarted();
+
+  /**
+   * @return the number of successful reloads so far.
+   */
+  long getVersion();
+
+  /**
+   * @return the modified time of the file when it was last reloaded, in ISO-8601 format. {@code
+   *     null} if no value is stored.
+   */
+  @Nullable
+  String getModifiedTime();
+
+  long getEntryCount();
+
+  /**
+   * @return the estimated memory in bytes retained by the stored value, including its keys and
+   *     values.
+   */
+  long getEstimatedRetainedSize();
+
+  long getInitialDelayMillis();
+
+  void setInitialDelayMillis(long initialDelayMillis);
+
+  long getDelayMillis();
+
+  void setDelayMillis(long delayMillis);
+
+  /**
+   * Reads and parses the file immediately, even if its modified time has not changed.
+   *
+   * @throws IllegalStateException if the store is not started, or if the file is missing or fails
+   *     to parse.
+   */
+  void reloadNow() throws IllegalStateException;
+}
@@ -0,0 +1,164 @@
+package io.contek.tinker.reloading;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of all started {@link ReloadingStore}s. Each store is also registered as a {@link
+ * ReloadingStoreMXBean} in the platform MBean server under the domain {@value #DOMAIN}.
+ */
+@ThreadSafe
+public final class ReloadingStoreRegistry {
+
+  public static final String DOMAIN = "io.contek.tinker.reloading";
+
+  private static final AtomicLong ids = new AtomicLong(0);
+  private static final Map<ReloadingStore<?>, ObjectName> stores = new LinkedHashMap<>();
+
+  private ReloadingStoreRegistry() {}
+
+  /**
+   * @return all started stores, in the order they were started.
+   */
+  public static ImmutableList<ReloadingStore<?>> getLiveStores() {
+    synchronized (stores) {
+      return ImmutableList.copyOf(stores.keySet());
+    }
+  }
+
+  /**
+   * Returns the name of the MBean of the given store.
+   *
+   * @param store the store.
+   * @return the name of the MBean. {@code null} if the store is not started.
+   */
+  @Nullable
+  public static ObjectName getObjectName(ReloadingStore<?> store) {
+    synchronized (stores) {
+      return stores.get(store);
+    }
+  }
+
+  static void register(ReloadingStore<?> store) throws JMException {
+    ObjectName name =
+        new ObjectName(
+            DOMAIN
+                + ":type=ReloadingStore,name="
+                + ObjectName.quote(store.getClass().getName())
+                + ",id="
+                + ids.incrementAndGet());
+    synchronized (stores) {
+      if (stores.putIfAbsent(store, name) != null) {
+        return;
+      }
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(new Control(store), name);
+    } catch (JMException | RuntimeException e) {
+      synchronized (stores) {
+        stores.remove(store, name);
+      }
+      throw e;
+    }
+  }
+
+  static void unregister(ReloadingStore<?> store) throws JMException {
+    ObjectName name;
+    synchronized (stores) {
+      name = stores.remove(store);
+    }
+    if (name == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (server.isRegistered(name)) {
+      server.unregisterMBean(name);
+    }
+  }
+
+  @ThreadSafe
+  private static final class Control implements ReloadingStoreMXBean {
+
+    private final ReloadingStore<?> store;
+
+    private Control(ReloadingStore<?> store) {
+      this.store = store;
+    }
+
+    @Override
+    public String getConfigPath() {
+      return store.getConfigPath().toString();
+    }
+
+    @Override
+    public boolean isStarted() {
+      return store.isStarted();
+    }
+
+    @Override
+    public long getVersion() {
+      return store.getVersion();
+    }
+
+    @Nullable
+    @Override
+    public String getModifiedTime() {
+      Instant modifiedTime = store.getModifiedTime();
+      return modifiedTime == null ? null : modifiedTime.toString();
+    }
+
+    @Override
+    public long getEntryCount() {
+      return store.getEntryCount();
+    }
+
+    @Override
+    public long getEstimatedRetainedSize() {
+      return store.getEstimatedRetainedSize();
+    }
+
+    @Override
+    public long getInitialDelayMillis() {
+      return store.getInitialDelay().toMillis();
+    }
+
+    @Override
+    public void setInitialDelayMillis(long initialDelayMillis) {
+      store.setInitialDelay(Duration.ofMillis(initialDelayMillis));
+    }
+
+    @Override
+    public long getDelayMillis() {
+      return store.getDelay().toMillis();
+    }
+
+    @Override
+    public void setDelayMillis(long delayMillis) {
+      store.setDelay(Duration.ofMillis(delayMillis));
+    }
+
+    @Override
+    public void reloadNow() {
+      try {
+        store.reloadNow();
+      } catch (RuntimeException e) {
+        // Remote JMX clients may not have the classes of the store or the cause, so only the
+        // message is passed on.
+        Throwable cause = e instanceof ReloadingStoreException ? e.getCause() : e;
+        throw new IllegalStateException("Reload failed: " + cause);
+      }
+    }
+  }
+}
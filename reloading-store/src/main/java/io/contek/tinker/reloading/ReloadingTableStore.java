@@ -41,6 +41,11 @@ public abstract class ReloadingTableStore<RowKey, ColumnKey, Value>
     return item == null ? ImmutableTable.of() : item;
   }
 
+  @Override
+  protected final long countEntries(ImmutableTable<RowKey, ColumnKey, Value> config) {
+    return config.size();
+  }
+
   /** Parser to read and parse {@link ImmutableTable} from a file. */
   @ThreadSafe
   public interface IParser<RowKey, ColumnKey, Value>
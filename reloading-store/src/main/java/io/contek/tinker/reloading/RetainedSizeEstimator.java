@@ -0,0 +1,307 @@
+package io.contek.tinker.reloading;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Estimates the memory retained by an object graph, assuming a 64-bit JVM with compressed
+ * references.
+ *
+ * <p>The graph is walked through fields, arrays, collections and maps, counting each object once.
+ * Containers of more than {@value #SAMPLES} elements are sampled: an element is walked if its
+ * identity hash is a multiple of a power-of-two rate, and its size is scaled up by the number of
+ * elements per selected one. Selecting by identity rather than position makes containers which
+ * share elements, such as the entry array and hash table of a map, select the same elements, and
+ * lower rates select a superset of higher ones. Objects are walked in increasing order of their
+ * scale, so each shared object is counted once at the most precise scale. A field of a selected
+ * element whose type the element itself has, such as the next entry in a hash bucket, is taken to
+ * link to another element of the same container, and is only followed if that element is selected
+ * too. The walk stops after {@value #MAX_VISITS} objects, so a graph larger than that is
+ * underestimated.
+ *
+ * <p>Classes and enum constants are shared by the whole JVM and are not counted. Objects whose
+ * fields cannot be read, such as JDK collections, are counted by their own fields plus a typical
+ * overhead per element, and walked through their public API if they are collections or maps.
+ */
+@ThreadSafe
+final class RetainedSizeEstimator {
+
+  static final int SAMPLES = 128;
+  static final int MAX_VISITS = 100_000;
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+
+  // Header, value reference, hash, coder and hash flag of a String.
+  private static final int STRING = 24;
+
+  // Element reference and spare capacity of an element of an opaque list.
+  private static final int LIST_SLOT = 6;
+
+  // Entry node and table slot of an element of an opaque hash or tree based map or set.
+  private static final int NODE_SLOT = 40;
+
+  private static final ClassValue<Layout> LAYOUTS =
+      new ClassValue<>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+          return Layout.of(type);
+        }
+      };
+
+  private RetainedSizeEstimator() {}
+
+  /**
+   * Estimates the memory retained by the given object.
+   *
+   * @param root the object.
+   * @return the estimated number of bytes.
+   */
+  static long estimate(Object root) {
+    IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<>();
+    Queue<Pending> pending = new PriorityQueue<>(Comparator.comparingDouble(p -> p.weight));
+    pending.add(new Pending(root, 1, 1));
+    double total = 0;
+    int visits = 0;
+    while (!pending.isEmpty() && visits < MAX_VISITS) {
+      Pending next = pending.remove();
+      Object object = next.object;
+      if (isShared(object) || visited.put(object, Boolean.TRUE) != null) {
+        continue;
+      }
+      visits++;
+      total += next.weight * visit(object, next.weight, next.rate, pending);
+    }
+    return Math.round(total);
+  }
+
+  /**
+   * Returns the shallow size of the given object, and adds its references to {@code pending}. The
+   * rate is the one the object was selected at from its container, or one if it was not sampled.
+   */
+  private static long visit(Object object, double weight, int rate, Queue<Pending> pending) {
+    Class<?> type = object.getClass();
+    if (type.isArray()) {
+      Class<?> component = type.getComponentType();
+      int length = Array.getLength(object);
+      if (!component.isPrimitive()) {
+        sample(Arrays.asList((Object[]) object).iterator(), length, false, weight, pending);
+      }
+      return array((long) length * sizeOf(component));
+    }
+    if (object instanceof String) {
+      return string((String) object);
+    }
+
+    Layout layout = LAYOUTS.get(type);
+    if (layout.references != null) {
+      for (int i = 0; i < layout.references.length; i++) {
+        try {
+          Object value = layout.references[i].get(object);
+          if (rate == 1 || !layout.links[i]) {
+            push(value, weight, 1, pending);
+          } else if (isSelected(value, rate)) {
+            push(value, weight, rate, pending);
+          }
+        } catch (IllegalAccessException e) {
+          // Not readable after all, so only its own size is counted.
+        }
+      }
+      return layout.size;
+    }
+    if (object instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      sample(map.entrySet().iterator(), map.size(), true, weight, pending);
+      return layout.size + (long) map.size() * NODE_SLOT;
+    }
+    if (object instanceof Collection) {
+      Collection<?> collection = (Collection<?>) object;
+      sample(collection.iterator(), collection.size(), false, weight, pending);
+      int slot = collection instanceof List ? LIST_SLOT : NODE_SLOT;
+      return layout.size + (long) collection.size() * slot;
+    }
+    if (object instanceof AtomicReferenceArray) {
+      AtomicReferenceArray<?> array = (AtomicReferenceArray<?>) object;
+      List<Object> elements = new ArrayList<>(array.length());
+      for (int i = 0; i < array.length(); i++) {
+        elements.add(array.get(i));
+      }
+      sample(elements.iterator(), elements.size(), false, weight, pending);
+      return layout.size + array((long) array.length() * REFERENCE);
+    }
+    return layout.size;
+  }
+
+  /**
+   * Adds the given elements to {@code pending}, or only those selected at a rate which leaves about
+   * {@link #SAMPLES} of them, weighted by the number of elements per selected one. Entries of maps
+   * are selected by their keys.
+   */
+  private static void sample(
+      Iterator<?> iterator, int size, boolean entries, double weight, Queue<Pending> pending) {
+    int rate = size <= SAMPLES ? 1 : Integer.highestOneBit(size / SAMPLES);
+    List<Object> selected = new ArrayList<>();
+    int population = 0;
+    while (iterator.hasNext()) {
+      Object element = iterator.next();
+      if (entries && element instanceof Map.Entry) {
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+        Object key = entry.getKey();
+        population++;
+        if (isSelected(key == null ? entry.getValue() : key, rate)) {
+          selected.add(key);
+          selected.add(entry.getValue());
+        }
+      } else if (element != null) {
+        population++;
+        if (isSelected(element, rate)) {
+          selected.add(element);
+        }
+      }
+    }
+    if (selected.isEmpty()) {
+      return;
+    }
+    int groups = entries ? selected.size() / 2 : selected.size();
+    double scaled = rate == 1 ? weight : weight * population / groups;
+    for (Object element : selected) {
+      push(element, scaled, rate, pending);
+    }
+  }
+
+  private static boolean isSelected(@Nullable Object object, int rate) {
+    if (rate == 1 || object == null) {
+      return rate == 1;
+    }
+    int hash = System.identityHashCode(object) * 0x9E3779B9;
+    return ((hash ^ (hash >>> 16)) & (rate - 1)) == 0;
+  }
+
+  private static void push(
+      @Nullable Object object, double weight, int rate, Queue<Pending> pending) {
+    if (object != null) {
+      pending.add(new Pending(object, weight, rate));
+    }
+  }
+
+  private static boolean isShared(Object object) {
+    return object instanceof Class
+        || object instanceof Enum
+        || object instanceof ClassLoader
+        || object instanceof Thread;
+  }
+
+  private static long string(String string) {
+    boolean latin1 = true;
+    for (int i = 0; i < string.length() && latin1; i++) {
+      latin1 = string.charAt(i) <= 0xFF;
+    }
+    return STRING + array(latin1 ? string.length() : 2L * string.length());
+  }
+
+  private static long array(long bytes) {
+    return align(ARRAY_HEADER + bytes);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  private static int sizeOf(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return REFERENCE;
+  }
+
+  @Immutable
+  private static final class Pending {
+
+    private final Object object;
+    private final double weight;
+    private final int rate;
+
+    private Pending(Object object, double weight, int rate) {
+      this.object = object;
+      this.weight = weight;
+      this.rate = rate;
+    }
+  }
+
+  /** Shallow size and readable reference fields of a class. */
+  @Immutable
+  private static final class Layout {
+
+    private final long size;
+
+    // Null if some reference fields cannot be read.
+    @Nullable private final Field[] references;
+
+    // Whether each reference field is declared with a type, other than Object, of the class itself.
+    private final boolean[] links;
+
+    private Layout(long size, @Nullable Field[] references, boolean[] links) {
+      this.size = size;
+      this.references = references;
+      this.links = links;
+    }
+
+    private static Layout of(Class<?> type) {
+      long size = OBJECT_HEADER;
+      List<Field> references = new ArrayList<>();
+      boolean readable = true;
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          size += sizeOf(field.getType());
+          if (field.getType().isPrimitive() || !readable) {
+            continue;
+          }
+          try {
+            readable = field.trySetAccessible();
+          } catch (SecurityException e) {
+            readable = false;
+          }
+          references.add(field);
+        }
+      }
+      if (!readable) {
+        return new Layout(align(size), null, new boolean[0]);
+      }
+      boolean[] links = new boolean[references.size()];
+      for (int i = 0; i < links.length; i++) {
+        Class<?> fieldType = references.get(i).getType();
+        links[i] = fieldType != Object.class && fieldType.isAssignableFrom(type);
+      }
+      return new Layout(align(size), references.toArray(new Field[0]), links);
+    }
+  }
+}
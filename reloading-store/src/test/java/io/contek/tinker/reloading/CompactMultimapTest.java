@@ -0,0 +1,103 @@
+package io.contek.tinker.reloading;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultimap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CompactMultimapTest {
+
+  @Test
+  void build_randomEntries_sameAsImmutableListMultimap() {
+    Random random = new Random(42);
+    ImmutableListMultimap.Builder<Integer, Integer> expectedBuilder =
+        ImmutableListMultimap.builder();
+    CompactMultimap.Builder<Integer, Integer> actualBuilder = CompactMultimap.builder();
+    for (int i = 0; i < 100_000; i++) {
+      int key = random.nextInt(1_000);
+      int value = random.nextInt();
+      expectedBuilder.put(key, value);
+      actualBuilder.put(key, value);
+    }
+    ImmutableListMultimap<Integer, Integer> expected = expectedBuilder.build();
+    CompactMultimap<Integer, Integer> actual = actualBuilder.build();
+
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected.keySet().asList(), actual.keySet().asList());
+    for (Integer key : expected.keySet()) {
+      assertEquals(expected.get(key), actual.get(key));
+    }
+    assertEquals(expected.values().asList(), actual.values());
+    List<String> expectedEntries = new ArrayList<>();
+    expected.forEach((key, value) -> expectedEntries.add(key + "=" + value));
+    List<String> actualEntries = new ArrayList<>();
+    actual.forEach((key, value) -> actualEntries.add(key + "=" + value));
+    assertEquals(expectedEntries, actualEntries);
+    assertEquals(actual, CompactMultimap.copyOf(expected));
+  }
+
+  @Test
+  void get_missingKey_empty() {
+    CompactMultimap<String, Integer> multimap =
+        CompactMultimap.<String, Integer>builder().put("a", 1).build();
+    assertTrue(multimap.get("b").isEmpty());
+    assertFalse(multimap.containsKey("b"));
+  }
+
+  @Test
+  void get_indexOutOfSlice_throws() {
+    CompactMultimap<String, Integer> multimap =
+        CompactMultimap.<String, Integer>builder().put("a", 1).put("b", 2).build();
+    assertThrows(IndexOutOfBoundsException.class, () -> multimap.get("a").get(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> multimap.get("b").get(-1));
+  }
+
+  @Test
+  void of_empty() {
+    CompactMultimap<String, Integer> multimap = CompactMultimap.of();
+    assertTrue(multimap.isEmpty());
+    assertEquals(multimap, CompactMultimap.<String, Integer>builder().build());
+    assertEquals("{}", multimap.toString());
+  }
+
+  @Test
+  void equals_sameEntries_equal() {
+    CompactMultimap<String, Integer> a =
+        CompactMultimap.<String, Integer>builder().put("a", 1).put("b", 2).put("a", 3).build();
+    CompactMultimap<String, Integer> b =
+        CompactMultimap.copyOf(ImmutableMultimap.of("a", 1, "a", 3, "b", 2));
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+  }
+
+  @Test
+  void equals_differentOrder_notEqual() {
+    CompactMultimap<String, Integer> a =
+        CompactMultimap.copyOf(ImmutableMultimap.of("a", 1, "a", 2, "b", 3));
+    assertFalse(a.equals(CompactMultimap.copyOf(ImmutableMultimap.of("a", 2, "a", 1, "b", 3))));
+    assertFalse(a.equals(CompactMultimap.copyOf(ImmutableMultimap.of("b", 3, "a", 1, "a", 2))));
+    assertFalse(a.equals(CompactMultimap.copyOf(ImmutableMultimap.of("a", 1, "b", 2, "b", 3))));
+  }
+
+  @Test
+  void toString_groupsValuesByKey() {
+    CompactMultimap<String, Integer> multimap =
+        CompactMultimap.<String, Integer>builder().put("a", 1).put("b", 2).put("a", 3).build();
+    assertEquals("{a=[1, 3], b=[2]}", multimap.toString());
+  }
+
+  @Test
+  void put_null_throws() {
+    CompactMultimap.Builder<String, Integer> builder = CompactMultimap.builder();
+    assertThrows(NullPointerException.class, () -> builder.put(null, 1));
+    assertThrows(NullPointerException.class, () -> builder.put("a", null));
+  }
+}
@@ -0,0 +1,81 @@
+package io.contek.tinker.reloading;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RetainedSizeEstimatorTest {
+
+  @Test
+  void estimate_string_headerAndBytes() {
+    assertEquals(24 + 24, RetainedSizeEstimator.estimate("abc"));
+    assertEquals(24 + 24, RetainedSizeEstimator.estimate("\u4e2d\u6587"));
+    assertEquals(24 + 32, RetainedSizeEstimator.estimate("\u4e2d\u6587\u4e2d\u6587\u4e2d"));
+  }
+
+  @Test
+  void estimate_primitiveArray_headerAndElements() {
+    assertEquals(56, RetainedSizeEstimator.estimate(new int[10]));
+    assertEquals(16, RetainedSizeEstimator.estimate(new long[0]));
+  }
+
+  @Test
+  void estimate_sharedObject_countedOnce() {
+    String shared = "abc";
+    assertEquals(
+        RetainedSizeEstimator.estimate(new Object[2]) + RetainedSizeEstimator.estimate(shared),
+        RetainedSizeEstimator.estimate(new Object[] {shared, shared}));
+  }
+
+  @Test
+  void estimate_cycle_terminates() {
+    Node node = new Node(null, "a");
+    node.next = node;
+    assertEquals(24 + 48, RetainedSizeEstimator.estimate(node));
+  }
+
+  @Test
+  void estimate_largeList_closeToExact() {
+    int size = 100_000;
+    List<Node> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(new Node(null, String.format("%06d", i)));
+    }
+    long exact = size * (24L + 48L + 6L);
+    assertWithin(exact, RetainedSizeEstimator.estimate(list));
+  }
+
+  @Test
+  void estimate_largeListOfLinkedElements_closeToExact() {
+    int size = 100_000;
+    List<Node> list = new ArrayList<>(size);
+    Node previous = null;
+    for (int i = 0; i < size; i++) {
+      previous = new Node(previous, String.format("%06d", i));
+      list.add(previous);
+    }
+    long exact = size * (24L + 48L + 6L);
+    assertWithin(exact, RetainedSizeEstimator.estimate(list));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(
+        Math.abs(actual - expected) < expected / 10, "expected " + expected + " but was " + actual);
+  }
+
+  private static final class Node {
+
+    @Nullable private Node next;
+    private final String name;
+
+    private Node(@Nullable Node next, String name) {
+      this.next = next;
+      this.name = name;
+    }
+  }
+}